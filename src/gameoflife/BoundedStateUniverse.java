@@ -0,0 +1,161 @@
+package gameoflife;
+
+import java.util.Arrays;
+
+/**
+ * A finite universe of a fixed size stored as one state byte per cell, used
+ * for Generations rules and for colouring by age where a single bit per cell
+ * is not enough. Like BoundedUniverse the cells are surrounded by a one cell
+ * halo refreshed from the opposite edges before each generation, so the
+ * update loop needs no bounds checks. States follow the rules described in
+ * StateTable.
+ *
+ * @author Ashley Allen
+ */
+public class BoundedStateUniverse implements Universe {
+
+    /**
+     * The largest number of cells, including the halo, a universe may hold
+     * per generation, which allows for a universe of about 5700 by 5700 cells
+     */
+    public static final int MAX_CELLS = 1 << 25;
+
+    private final Topology topology;
+    private final int width, height;
+    private final int stride;
+    private final byte[] aliveStates;
+    private final byte[] transitions;
+    private byte[] current, next;
+    private int population = 0;
+
+    /**
+     * Creates a new empty universe with the specified topology and size
+     *
+     * @param topology the topology of the universe
+     * @param width the width of the universe in cells
+     * @param height the height of the universe in cells
+     * @param rule the rule to play
+     * @param trackAge whether alive cells should count their age, which only
+     * applies to two state rules
+     */
+    public BoundedStateUniverse(Topology topology, int width, int height, Rule rule, boolean trackAge) {
+        if (topology == Topology.UNBOUNDED) {
+            throw new IllegalArgumentException("A bounded universe needs a bounded topology");
+        }
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Universe size must be positive: " + width + "x" + height);
+        }
+        long cells = (width + 2L) * (height + 2L);
+        if (cells > MAX_CELLS) {
+            throw new IllegalArgumentException("Universe is too large: " + width + "x" + height);
+        }
+        this.topology = topology;
+        this.width = width;
+        this.height = height;
+        stride = width + 2;
+        current = new byte[(int) cells];
+        next = new byte[current.length];
+
+        StateTable table = new StateTable(rule, trackAge);
+        aliveStates = table.getAliveStates();
+        transitions = table.getTransitions();
+    }
+
+    @Override
+    public int getPopulation() {
+        return population;
+    }
+
+    @Override
+    public int getState(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return OUTSIDE;
+        }
+        return current[(y + 1) * stride + x + 1] & 0xFF;
+    }
+
+    @Override
+    public void copyStates(int startX, int startY, int width, int height, byte[] states) {
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                states[y * width + x] = (byte) getState(startX + x, startY + y);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc} Coordinates outside the universe are wrapped according to
+     * the topology, or ignored on a plane
+     */
+    @Override
+    public void setCell(int x, int y, boolean alive) {
+        int index = topology.wrap(x, y, width, height);
+        if (index < 0) {
+            return;
+        }
+        int cell = (index / width + 1) * stride + index % width + 1;
+        population += (alive ? 1 : 0) - aliveStates[current[cell] & 0xFF];
+        current[cell] = (byte) (alive ? 1 : 0);
+    }
+
+    @Override
+    public void clear() {
+        //The other buffer is only scratch space for the next generation
+        Arrays.fill(current, (byte) 0);
+        population = 0;
+    }
+
+    @Override
+    public void step() {
+        fillHalo();
+
+        int count = 0;
+        for (int y = 1; y <= height; y++) {
+            int middle = y * stride, above = middle - stride, below = middle + stride;
+            for (int x = 1; x <= width; x++) {
+                int neighbours = aliveStates[current[above + x - 1] & 0xFF] + aliveStates[current[above + x] & 0xFF]
+                        + aliveStates[current[above + x + 1] & 0xFF]
+                        + aliveStates[current[middle + x - 1] & 0xFF] + aliveStates[current[middle + x + 1] & 0xFF]
+                        + aliveStates[current[below + x - 1] & 0xFF] + aliveStates[current[below + x] & 0xFF]
+                        + aliveStates[current[below + x + 1] & 0xFF];
+                byte nextState = transitions[(current[middle + x] & 0xFF) * 9 + neighbours];
+                next[middle + x] = nextState;
+                count += aliveStates[nextState & 0xFF];
+            }
+        }
+
+        byte[] previous = current;
+        current = next;
+        next = previous;
+        population = count;
+    }
+
+    /**
+     * Copies the edges of the universe into the halo surrounding it so that
+     * each edge cell sees the neighbours the topology gives it
+     */
+    private void fillHalo() {
+        if (topology == Topology.PLANE) {
+            //The halo is never written to so is always dead
+            return;
+        }
+
+        //Join the left and right edges
+        for (int y = 1; y <= height; y++) {
+            current[y * stride] = current[y * stride + width];
+            current[y * stride + width + 1] = current[y * stride + 1];
+        }
+
+        //Join the top and bottom edges, including the corners
+        int bottom = (height + 1) * stride;
+        if (topology == Topology.TORUS) {
+            System.arraycopy(current, height * stride, current, 0, stride);
+            System.arraycopy(current, stride, current, bottom, stride);
+        } else {
+            for (int x = 0; x < stride; x++) {
+                current[x] = current[height * stride + stride - 1 - x];
+                current[bottom + x] = current[stride + stride - 1 - x];
+            }
+        }
+    }
+}
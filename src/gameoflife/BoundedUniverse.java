@@ -0,0 +1,250 @@
+package gameoflife;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * A finite universe of a fixed size stored as a flat bit array. Each row is
+ * padded with a one cell halo on every side which is refreshed from the
+ * opposite edges before each generation according to the topology, so the
+ * neighbour counting kernel never needs to check bounds. Cells are processed
+ * 64 at a time using bitwise adders, so only two state rules can be played.
+ *
+ * @author Ashley Allen
+ */
+public class BoundedUniverse implements Universe {
+
+    /**
+     * The largest number of 64 bit words a universe may use per generation,
+     * which allows for a universe of about 16000 by 16000 cells
+     */
+    public static final int MAX_WORDS = 1 << 22;
+
+    private final Topology topology;
+    private final int width, height;
+    private final int paddedWidth, stride;
+    private final long[] interiorMask;
+    private final int[] birthCounts, survivalCounts;
+    private long[] current, previous;
+    private int population = 0;
+
+    /**
+     * Creates a new empty universe with the specified topology and size
+     *
+     * @param topology the topology of the universe
+     * @param width the width of the universe in cells
+     * @param height the height of the universe in cells
+     * @param rule the two state rule to play
+     */
+    public BoundedUniverse(Topology topology, int width, int height, Rule rule) {
+        if (topology == Topology.UNBOUNDED) {
+            throw new IllegalArgumentException("A bounded universe needs a bounded topology");
+        }
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Universe size must be positive: " + width + "x" + height);
+        }
+        if (rule.getStates() != 2) {
+            throw new IllegalArgumentException("A bit array universe only plays two state rules");
+        }
+        long words = ((width + 2L + 63) >>> 6) * (height + 2L);
+        if (words > MAX_WORDS) {
+            throw new IllegalArgumentException("Universe is too large: " + width + "x" + height);
+        }
+        this.topology = topology;
+        this.width = width;
+        this.height = height;
+        paddedWidth = width + 2;
+        stride = (paddedWidth + 63) >>> 6;
+        current = new long[(int) words];
+        previous = new long[current.length];
+
+        //Only padded columns 1 to width hold real cells
+        interiorMask = new long[stride];
+        for (int px = 1; px <= width; px++) {
+            interiorMask[px >>> 6] |= 1L << (px & 63);
+        }
+
+        //The neighbour counts that cause a birth or let a cell survive
+        birthCounts = IntStream.range(0, 9).filter(rule::isBirth).toArray();
+        survivalCounts = IntStream.range(0, 9).filter(rule::isSurvival).toArray();
+    }
+
+    @Override
+    public int getPopulation() {
+        return population;
+    }
+
+    /**
+     * Checks whether a given coordinate lies inside the universe
+     *
+     * @param x the x coordinate to check
+     * @param y the y coordinate to check
+     * @return true if the coordinate lies inside the universe
+     */
+    public boolean contains(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    @Override
+    public int getState(int x, int y) {
+        if (!contains(x, y)) {
+            return OUTSIDE;
+        }
+        return getBit(current, x + 1, y + 1) ? 1 : 0;
+    }
+
+    @Override
+    public void copyStates(int startX, int startY, int width, int height, byte[] states) {
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                states[y * width + x] = (byte) getState(startX + x, startY + y);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc} Coordinates outside the universe are wrapped according to
+     * the topology, or ignored on a plane
+     */
+    @Override
+    public void setCell(int x, int y, boolean alive) {
+        int index = topology.wrap(x, y, width, height);
+        if (index < 0) {
+            return;
+        }
+        int px = index % width + 1, py = index / width + 1;
+        if (getBit(current, px, py) != alive) {
+            current[py * stride + (px >>> 6)] ^= 1L << (px & 63);
+            population += alive ? 1 : -1;
+        }
+    }
+
+    @Override
+    public void clear() {
+        //The other buffer is only scratch space for the next generation
+        Arrays.fill(current, 0);
+        population = 0;
+    }
+
+    @Override
+    public void step() {
+        fillHalo();
+
+        long[] next = previous;
+        int count = 0;
+        for (int py = 1; py <= height; py++) {
+            int up = (py - 1) * stride, mid = py * stride, down = (py + 1) * stride;
+            for (int w = 0; w < stride; w++) {
+                boolean first = w == 0, last = w == stride - 1;
+
+                //The eight neighbours of each of the 64 cells in this word
+                long u = current[up + w], m = current[mid + w], d = current[down + w];
+                long ul = u << 1 | (first ? 0 : current[up + w - 1] >>> 63);
+                long ur = u >>> 1 | (last ? 0 : current[up + w + 1] << 63);
+                long ml = m << 1 | (first ? 0 : current[mid + w - 1] >>> 63);
+                long mr = m >>> 1 | (last ? 0 : current[mid + w + 1] << 63);
+                long dl = d << 1 | (first ? 0 : current[down + w - 1] >>> 63);
+                long dr = d >>> 1 | (last ? 0 : current[down + w + 1] << 63);
+
+                //Sum the neighbours into a 4 bit counter per cell using a
+                //tree of adders
+                long aSum = ul ^ u ^ ur, aCarry = ul & u | ur & (ul ^ u);
+                long bSum = ml ^ mr ^ dl, bCarry = ml & mr | dl & (ml ^ mr);
+                long cSum = d ^ dr, cCarry = d & dr;
+                long s0 = aSum ^ bSum ^ cSum;
+                long twos = aSum & bSum | cSum & (aSum ^ bSum);
+                long carrySum = aCarry ^ bCarry ^ cCarry;
+                long fours = aCarry & bCarry | cCarry & (aCarry ^ bCarry);
+                long s1 = carrySum ^ twos;
+                long s2 = fours ^ carrySum & twos;
+                long s3 = fours & carrySum & twos;
+
+                //Pick out the cells whose count is in the rule
+                long born = 0, survived = 0;
+                for (int n : birthCounts) {
+                    born |= countEquals(n, s0, s1, s2, s3);
+                }
+                for (int n : survivalCounts) {
+                    survived |= countEquals(n, s0, s1, s2, s3);
+                }
+                long result = (born & ~m | survived & m) & interiorMask[w];
+                next[mid + w] = result;
+                count += Long.bitCount(result);
+            }
+        }
+
+        previous = current;
+        current = next;
+        population = count;
+    }
+
+    /**
+     * Finds the cells whose 4 bit neighbour count equals the specified value
+     *
+     * @param n the neighbour count to match
+     * @param s0 the 1s bit of each cell's count
+     * @param s1 the 2s bit of each cell's count
+     * @param s2 the 4s bit of each cell's count
+     * @param s3 the 8s bit of each cell's count
+     * @return a mask of the cells whose count is n
+     */
+    private static long countEquals(int n, long s0, long s1, long s2, long s3) {
+        return ((n & 1) != 0 ? s0 : ~s0) & ((n & 2) != 0 ? s1 : ~s1)
+                & ((n & 4) != 0 ? s2 : ~s2) & ((n & 8) != 0 ? s3 : ~s3);
+    }
+
+    /**
+     * Copies the edges of the universe into the halo surrounding it so that
+     * each edge cell sees the neighbours the topology gives it
+     */
+    private void fillHalo() {
+        if (topology == Topology.PLANE) {
+            //The halo is never written to so is always dead
+            return;
+        }
+
+        //Join the left and right edges
+        for (int py = 1; py <= height; py++) {
+            setBit(current, 0, py, getBit(current, width, py));
+            setBit(current, width + 1, py, getBit(current, 1, py));
+        }
+
+        //Join the top and bottom edges, including the corners
+        int top = 0, bottom = (height + 1) * stride;
+        if (topology == Topology.TORUS) {
+            System.arraycopy(current, height * stride, current, top, stride);
+            System.arraycopy(current, stride, current, bottom, stride);
+        } else {
+            for (int px = 0; px < paddedWidth; px++) {
+                setBit(current, px, 0, getBit(current, paddedWidth - 1 - px, height));
+                setBit(current, px, height + 1, getBit(current, paddedWidth - 1 - px, 1));
+            }
+        }
+    }
+
+    /**
+     * Gets a bit from a padded cell array
+     *
+     * @param cells the cell array to read
+     * @param px the padded x coordinate
+     * @param py the padded y coordinate
+     * @return the value of the bit
+     */
+    private boolean getBit(long[] cells, int px, int py) {
+        return (cells[py * stride + (px >>> 6)] >>> (px & 63) & 1) != 0;
+    }
+
+    /**
+     * Sets a bit in a padded cell array
+     *
+     * @param cells the cell array to write
+     * @param px the padded x coordinate
+     * @param py the padded y coordinate
+     * @param value the value to give the bit
+     */
+    private void setBit(long[] cells, int px, int py, boolean value) {
+        int index = py * stride + (px >>> 6);
+        long bit = 1L << (px & 63);
+        cells[index] = value ? cells[index] | bit : cells[index] & ~bit;
+    }
+}
@@ -1,14 +1,7 @@
 package gameoflife;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Scanner;
 import javafx.animation.AnimationTimer;
 import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.paint.Color;
-import javafx.scene.paint.Paint;
 
 /**
  * Handles all the game logic including: drawing the game to the
@@ -20,12 +13,18 @@ import javafx.scene.paint.Paint;
 public class GameController extends AnimationTimer {
 
     private int gridWidth, gridHeight;
+    private int viewX = 0, viewY = 0;
     private final double gameWidth, gameHeight;
     private double hFactor, vFactor;
-    private Map<String, Coordinates> cells = new HashMap<>();
-    private Map<String, Coordinates> checks = new HashMap<>();
-    private final GraphicsContext gc;
-    private final List<Machine> machines = new ArrayList<>();
+    private Universe universe = new TiledUniverse(Rule.LIFE, false);
+    private Topology topology = Topology.UNBOUNDED;
+    private int universeWidth, universeHeight;
+    private Rule rule = Rule.LIFE;
+    private boolean colourByAge = false;
+    private int[] palette = Renderer.monochrome();
+    private byte[] visibleStates = new byte[0];
+    private final Renderer renderer;
+    private final MachineLibrary machines;
 
     private boolean paused = true;
     private boolean skipFrame = false;
@@ -39,15 +38,16 @@ public class GameController extends AnimationTimer {
     private int timeElapsed = 0;
 
     /**
-     * Sets all initial variables and scans in the example machines before
-     * drawing the game grid.
+     * Sets all initial variables and opens the example machine library before
+     * drawing the game grid. Machine templates are only decoded when first
+     * drawn.
      *
      * @param gc the GraphicsContext used to display the game
      * @param gridWidth the initial width of the game grid
      * @param gridHeight the initial height of the game grid
      */
     public GameController(GraphicsContext gc, int gridWidth, int gridHeight) {
-        this.gc = gc;
+        renderer = new Renderer(gc);
         this.gridWidth = gridWidth;
         this.gridHeight = gridHeight;
         gameWidth = gc.getCanvas().getWidth();
@@ -55,144 +55,31 @@ public class GameController extends AnimationTimer {
         hFactor = gameWidth / gridWidth;
         vFactor = gameHeight / gridHeight;
 
-        importExampleMachines();
+        machines = new MachineLibrary("exampleMachines.txt");
         drawGrid();
     }
 
     /**
-     * Imports the example machines from the 'exampleMachines.txt' file and
-     * saves them into the Machine array
-     */
-    private void importExampleMachines() {
-        Scanner scannner = new Scanner(this.getClass().getResourceAsStream("exampleMachines.txt"));
-        while (scannner.hasNext()) {
-            String machineName = scannner.next();
-            int machineWidth = scannner.nextInt(), machineHeight = scannner.nextInt();
-            boolean[][] machineTemplate = new boolean[machineHeight][machineWidth];
-            for (int i = 0; i < machineHeight; i++) {
-                for (int j = 0; j < machineWidth; j++) {
-                    machineTemplate[i][j] = scannner.next().charAt(0) == 'X';
-                }
-            }
-            machines.add(new Machine(machineName, machineWidth, machineHeight, machineTemplate));
-        }
-    }
-
-    /**
-     * Draws the initial game grid to the specified GraphicsContext given in
+     * Draws the visible part of the universe to the GraphicsContext given in
      * the constructor
      */
     private void drawGrid() {
-        for (int x = 0; x < gridWidth; x++) {
-            for (int y = 0; y < gridHeight; y++) {
-                drawSquare(x, y, Color.WHITE, Color.SILVER);
-            }
+        if (visibleStates.length != gridWidth * gridHeight) {
+            visibleStates = new byte[gridWidth * gridHeight];
         }
-    }
-    
-    /**
-     * Draws the changes to the game grid since the last cell states
-     */
-    private void drawChanges() {
-        checks.values().forEach((pos) -> {
-            int x = pos.getX(), y = pos.getY();
-            if (isOnGrid(x, y)) {
-                if (cells.containsKey(getHashKey(x, y))) {
-                    drawSquare(x, y, Color.BLACK, Color.SILVER);
-                } else {
-                    drawSquare(x, y, Color.WHITE, Color.SILVER);
-                }
-            }
-        });
-    }
-    
-    /**
-     * Checks whether a given coordinate is on the current game grid
-     * 
-     * @param x the x coordinate to check
-     * @param y the y coordinate to check
-     * @return true if the given coordinate is on the game grid
-     */
-    private boolean isOnGrid(int x, int y) {
-        return x >= 0 && y >= 0 && x < gridWidth && y < gridHeight;
-    }
-
-    /**
-     * Draws a square on the specified GraphicsContext
-     *
-     * @param x the x coordinate to draw to
-     * @param y the y coordinate to draw to
-     * @param fill the fill color to apply to the square
-     * @param stroke the line color to appy to the square
-     */
-    private void drawSquare(int x, int y, Paint fill, Paint stroke) {
-        gc.setLineWidth(2);
-        gc.setStroke(stroke);
-        gc.setFill(fill);
-        gc.fillRect(x * hFactor, y * vFactor, hFactor, vFactor);
-        gc.strokeRect(x * hFactor, y * vFactor, hFactor, vFactor);
+        universe.copyStates(viewX, viewY, gridWidth, gridHeight, visibleStates);
+        renderer.render(visibleStates, gridWidth, gridHeight, palette);
     }
 
     /**
      * Updates the state of all alive cells and their neighbour cells
      */
     public void updateCellStates() {
-        //Add all alive cells and their surrounding cells to the checks array
-        checks = new HashMap<>();
-        cells.values().stream().forEach((pos) -> {
-            int x = pos.getX(), y = pos.getY();
-            for (int cx = x - 1; cx < x + 2; cx++) {
-                for (int cy = y - 1; cy < y + 2; cy++) {
-                    checks.putIfAbsent(getHashKey(cx, cy), new Coordinates(cx, cy));
-                }
-            }
-        });
-
-        //For each pair of coordinates in checks compute whether the state
-        //of the cell at those coordinates should be changed or not
-        Map<String, Coordinates> tempCells = new HashMap<>(cells);
-        checks.values().stream().forEach((pos) -> {
-            int x = pos.getX(), y = pos.getY();
-            String hashKey = getHashKey(x, y);
-            int adjCells = getNumAdjCells(x, y);
-            if (cells.get(hashKey) == null) {
-                if (adjCells == 3) {
-                    tempCells.put(hashKey, pos);
-                }
-            } else {
-                if (adjCells < 2 || adjCells > 3) {
-                    tempCells.remove(hashKey);
-                }
-            }
-        });
-        cells = tempCells;
-
-        drawChanges();
-
+        universe.step();
+        drawGrid();
         generations++;
     }
 
-    /**
-     * Gets the number of adjacent alive cells next to a cell
-     *
-     * @param x the x coordinate of the cell to check
-     * @param y the y coordinate of the cell to check
-     * @return the number of adjacent alive cells
-     */
-    private int getNumAdjCells(int x, int y) {
-        int sum = 0;
-        for (int cx = x - 1; cx < x + 2; cx++) {
-            for (int cy = y - 1; cy < y + 2; cy++) {
-                if (!(cx == x && cy == y)) {
-                    if (cells.get(getHashKey(cx, cy)) != null) {
-                        sum++;
-                    }
-                }
-            }
-        }
-        return sum;
-    }
-
     /**
      * Toggles a cell at the specified coordinates, more precisely it creates a
      * cell at the specified coordinates if none exists or removes a cell from
@@ -202,13 +89,10 @@ public class GameController extends AnimationTimer {
      * @param y the y coordinate of the cell to toggle
      */
     public void toggleCell(int x, int y) {
-        String hashKey = getHashKey(x, y);
-        if (cells.get(hashKey) == null) {
-            cells.put(hashKey, new Coordinates(x, y));
-            drawSquare(x, y, Color.BLACK, Color.SILVER);
-        } else {
-            cells.remove(hashKey);
-            drawSquare(x, y, Color.WHITE, Color.SILVER);
+        int state = universe.getState(x, y);
+        if (state != Universe.OUTSIDE) {
+            universe.setCell(x, y, state == 0);
+            drawGrid();
         }
     }
 
@@ -220,7 +104,7 @@ public class GameController extends AnimationTimer {
      * @return the converted coordinate
      */
     public int convertX(double x) {
-        return (int) (x / hFactor);
+        return viewX + (int) (x / hFactor);
     }
 
     /**
@@ -231,7 +115,19 @@ public class GameController extends AnimationTimer {
      * @return the converted coordinate
      */
     public int convertY(double y) {
-        return (int) (y / vFactor);
+        return viewY + (int) (y / vFactor);
+    }
+
+    /**
+     * Moves the view of the game grid by the specified number of cells
+     *
+     * @param dx the number of cells to move right by
+     * @param dy the number of cells to move down by
+     */
+    public void pan(int dx, int dy) {
+        viewX += dx;
+        viewY += dy;
+        drawGrid();
     }
 
     /**
@@ -257,17 +153,6 @@ public class GameController extends AnimationTimer {
         drawGrid();
     }
 
-    /**
-     * Constructs a hashkey from the specified x and y coordinates
-     *
-     * @param x the x coordinate to construct from
-     * @param y the y coordinate to construct from
-     * @return the constructed hashkey
-     */
-    private String getHashKey(int x, int y) {
-        return x + "_" + y;
-    }
-    
     /**
      * Inherited from AnimationTimer. Runs in the background and calculates
      * various attributes such as time, frames and generations 
@@ -300,7 +185,7 @@ public class GameController extends AnimationTimer {
      * @return the number of currently alive cells
      */
     public int getNumCells() {
-        return cells.size();
+        return universe.getPopulation();
     }
 
     /**
@@ -309,19 +194,36 @@ public class GameController extends AnimationTimer {
      * @param index the index of the machine to retrieve
      */
     public void drawMachine(int index) {
-        Machine machine = machines.get(index);
+        Machine machine = machines.getMachine(index);
         int machineWidth = machine.getWidth(), machineHeight = machine.getHeight();
-        int startX = gridWidth / 2 - machineWidth / 2, startY = gridHeight / 2 - machineHeight / 2;
+        int startX = getViewCentre(viewX, gridWidth, universeWidth) - machineWidth / 2;
+        int startY = getViewCentre(viewY, gridHeight, universeHeight) - machineHeight / 2;
         boolean[][] machineTemplate = machine.getTemplate();
         for (int i = 0; i < machineHeight; i++) {
             for (int j = 0; j < machineWidth; j++) {
                 if (machineTemplate[i][j]) {
-                    int x = j + startX, y = i + startY;
-                    cells.put(getHashKey(x, y), new Coordinates(x, y));
-                    drawSquare(x, y, Color.BLACK, Color.SILVER);
+                    universe.setCell(j + startX, i + startY, true);
                 }
             }
         }
+        drawGrid();
+    }
+
+    /**
+     * Gets the centre of the view along one axis, limited to the part of a
+     * bounded universe that is visible so machines aren't clipped or wrapped
+     *
+     * @param viewStart the first visible cell along the axis
+     * @param viewSize the number of visible cells along the axis
+     * @param universeSize the size of the universe along the axis
+     * @return the cell at the centre of the view
+     */
+    private int getViewCentre(int viewStart, int viewSize, int universeSize) {
+        if (topology == Topology.UNBOUNDED) {
+            return viewStart + viewSize / 2;
+        }
+        int start = Math.max(viewStart, 0), end = Math.min(viewStart + viewSize, universeSize);
+        return start < end ? (start + end) / 2 : universeSize / 2;
     }
 
     /**
@@ -339,10 +241,78 @@ public class GameController extends AnimationTimer {
      * Clears the game grid
      */
     public void clear() {
-        cells.clear();
+        universe.clear();
         drawGrid();
     }
 
+    /**
+     * Sets the topology, size and rule of the universe and resets the game.
+     * An unbounded topology ignores the size. Colouring by age is only
+     * available for two state rules, as Generations rules use the state of a
+     * cell for its decay
+     *
+     * @param topology the topology of the universe
+     * @param width the width of the universe in cells
+     * @param height the height of the universe in cells
+     * @param rule the rule to play
+     * @param colourByAge whether to colour alive cells by their age
+     */
+    public void setUniverse(Topology topology, int width, int height, Rule rule, boolean colourByAge) {
+        if (colourByAge && rule.getStates() > 2) {
+            throw new IllegalArgumentException("Generations rules can't be coloured by age");
+        }
+        if (topology == Topology.UNBOUNDED) {
+            universe = new TiledUniverse(rule, colourByAge);
+        } else if (rule.getStates() == 2 && !colourByAge) {
+            universe = new BoundedUniverse(topology, width, height, rule);
+        } else {
+            universe = new BoundedStateUniverse(topology, width, height, rule, colourByAge);
+        }
+        this.topology = topology;
+        universeWidth = width;
+        universeHeight = height;
+        viewX = 0;
+        viewY = 0;
+        this.rule = rule;
+        this.colourByAge = colourByAge;
+
+        if (rule.getStates() > 2) {
+            palette = Renderer.generations(rule.getStates());
+        } else if (colourByAge) {
+            palette = Renderer.heat();
+        } else {
+            palette = Renderer.monochrome();
+        }
+        reset();
+    }
+
+    /**
+     * Gets the topology of the universe
+     *
+     * @return the topology of the universe
+     */
+    public Topology getTopology() {
+        return topology;
+    }
+
+    /**
+     * Gets the rule being played
+     *
+     * @return the rule being played
+     */
+    public Rule getRule() {
+        return rule;
+    }
+
+    /**
+     * Gets whether alive cells are coloured by their age
+     *
+     * @return whether alive cells are coloured by their age
+     */
+    public boolean isColourByAge() {
+        return colourByAge;
+    }
+
     /**
      * Gets the name of the machine at the specified index
      *
@@ -350,7 +320,7 @@ public class GameController extends AnimationTimer {
      * @return the name of the specified machine
      */
     public String getMachineName(int index) {
-        return machines.get(index).getName();
+        return machines.getName(index);
     }
 
     /**
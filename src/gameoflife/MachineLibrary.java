@@ -0,0 +1,341 @@
+package gameoflife;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * An indexed library of machines. The text source is compiled once into a
+ * compact binary cache which is memory-mapped on later startups, so only the
+ * index is touched when the library is opened. Each machine template is
+ * decoded the first time it is requested.
+ *
+ * Cache layout: a header (magic, source stamp, machine count), then one
+ * fixed-size index entry per machine (name offset, width, height, template
+ * offset), then the names and the bit-packed templates they point to.
+ *
+ * @author Ashley Allen
+ */
+public class MachineLibrary {
+
+    private static final int MAGIC = 0x474F4C31;
+    private static final int HEADER_SIZE = 16;
+    private static final int ENTRY_SIZE = 16;
+
+    private final URL source;
+    private final long stamp;
+    private final Path cache;
+    private ByteBuffer buffer;
+    private int count;
+    private Machine[] decoded;
+
+    /**
+     * Opens the machine library stored in the specified resource, using the
+     * binary cache if it is up to date and rebuilding it otherwise
+     *
+     * @param resourceName the name of the text resource holding the machines
+     */
+    public MachineLibrary(String resourceName) {
+        source = getClass().getResource(resourceName);
+        stamp = getSourceStamp(source);
+        cache = Paths.get(System.getProperty("user.home"), ".cache", "gameoflife", resourceName + ".bin");
+
+        //Without a stamp a stale cache can't be detected, so don't use one
+        ByteBuffer mapped = stamp == 0 ? null : mapCache(cache, stamp);
+        if (mapped == null) {
+            rebuild();
+        } else {
+            load(mapped);
+        }
+    }
+
+    /**
+     * Compiles the text source again, replacing the cache file if possible
+     * and falling back to the in-memory image otherwise
+     */
+    private void rebuild() {
+        byte[] image = buildImage(source, stamp);
+        ByteBuffer mapped = null;
+        if (stamp != 0) {
+            writeCache(cache, image);
+            mapped = mapCache(cache, stamp);
+        }
+        load(mapped == null ? ByteBuffer.wrap(image) : mapped);
+    }
+
+    /**
+     * Starts using the specified cache image, forgetting any machines decoded
+     * from the previous one
+     *
+     * @param image the cache image to use
+     */
+    private void load(ByteBuffer image) {
+        buffer = image;
+        count = buffer.getInt(12);
+        decoded = new Machine[count];
+    }
+
+    /**
+     * Gets a stamp identifying the current version of the source so a stale
+     * cache can be detected without reading the source itself
+     *
+     * @param source the location of the text source
+     * @return the stamp for the source, or 0 if it could not be determined
+     */
+    private static long getSourceStamp(URL source) {
+        try {
+            URLConnection connection = source.openConnection();
+            long lastModified = connection.getLastModified(), length = connection.getContentLengthLong();
+            connection.getInputStream().close();
+            if (lastModified <= 0 || length < 0) {
+                return 0;
+            }
+            return lastModified * 31 + length;
+        } catch (IOException ex) {
+            return 0;
+        }
+    }
+
+    /**
+     * Memory-maps the cache file if it exists, matches the source stamp and
+     * is large enough to hold its index. The entries themselves are only
+     * checked when they are used
+     *
+     * @param cache the location of the cache file
+     * @param stamp the expected source stamp
+     * @return the mapped cache or null if it is missing, stale or corrupt
+     */
+    private static ByteBuffer mapCache(Path cache, long stamp) {
+        if (!Files.isRegularFile(cache)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(cache, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                return null;
+            }
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.getInt(0) != MAGIC || mapped.getLong(4) != stamp || !hasIndex(mapped)) {
+                return null;
+            }
+            return mapped;
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks that the index of a cache fits inside it
+     *
+     * @param image the cache to check
+     * @return true if the whole index lies within the cache
+     */
+    private static boolean hasIndex(ByteBuffer image) {
+        int count = image.getInt(12);
+        return count >= 0 && HEADER_SIZE + (long) count * ENTRY_SIZE <= image.capacity();
+    }
+
+    /**
+     * Checks that the name and template of an index entry lie within the
+     * cache
+     *
+     * @param index the index of the machine to check
+     * @return true if every offset of the entry is in range
+     */
+    private boolean isEntryValid(int index) {
+        long size = buffer.capacity();
+        int entry = HEADER_SIZE + index * ENTRY_SIZE;
+        long nameOffset = buffer.getInt(entry), dataOffset = buffer.getInt(entry + 12);
+        long width = buffer.getInt(entry + 4), height = buffer.getInt(entry + 8);
+        if (nameOffset < 0 || nameOffset + 2 > size || dataOffset < 0 || width < 0 || height < 0) {
+            return false;
+        }
+        int nameLength = (buffer.get((int) nameOffset) & 0xFF) << 8 | buffer.get((int) nameOffset + 1) & 0xFF;
+        return nameOffset + 2 + nameLength <= size && dataOffset + (width * height + 7) / 8 <= size;
+    }
+
+    /**
+     * Gets the position of an index entry, rebuilding the cache first if the
+     * entry is corrupt
+     *
+     * @param index the index of the machine
+     * @return the position of the entry in the cache
+     */
+    private int getEntry(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("No machine at index " + index);
+        }
+        if (!isEntryValid(index)) {
+            rebuild();
+            if (index >= count || !isEntryValid(index)) {
+                throw new IllegalStateException("Unable to rebuild machine cache for " + source);
+            }
+        }
+        return HEADER_SIZE + index * ENTRY_SIZE;
+    }
+
+    /**
+     * Writes the cache image to disk, replacing any previous cache. Failure
+     * is not fatal as the image can still be used from memory
+     *
+     * @param cache the location of the cache file
+     * @param image the cache image to write
+     */
+    private static void writeCache(Path cache, byte[] image) {
+        Path temp = null;
+        try {
+            Files.createDirectories(cache.getParent());
+            temp = Files.createTempFile(cache.getParent(), "gameoflife", ".tmp");
+            Files.write(temp, image);
+            Files.move(temp, cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | UnsupportedOperationException ex) {
+            //Leave the cache unwritten and fall back to the in-memory image
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException deleteEx) {
+                    //Nothing more can be done about a temp file that won't delete
+                }
+            }
+        }
+    }
+
+    /**
+     * Parses the text source and compiles it into the binary cache layout
+     *
+     * @param source the location of the text source
+     * @param stamp the source stamp to record in the header
+     * @return the compiled cache image
+     */
+    private static byte[] buildImage(URL source, long stamp) {
+        List<Machine> machines = new ArrayList<>();
+        try (InputStream in = source.openStream(); Scanner scanner = new Scanner(in)) {
+            while (scanner.hasNext()) {
+                String machineName = scanner.next();
+                int machineWidth = scanner.nextInt(), machineHeight = scanner.nextInt();
+                boolean[][] machineTemplate = new boolean[machineHeight][machineWidth];
+                for (int i = 0; i < machineHeight; i++) {
+                    for (int j = 0; j < machineWidth; j++) {
+                        machineTemplate[i][j] = scanner.next().charAt(0) == 'X';
+                    }
+                }
+                machines.add(new Machine(machineName, machineWidth, machineHeight, machineTemplate));
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("Unable to read machines from " + source, ex);
+        }
+
+        //Lay out the names and templates after the index, remembering where
+        //each one starts
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        int bodyStart = HEADER_SIZE + machines.size() * ENTRY_SIZE;
+        int[] nameOffsets = new int[machines.size()];
+        int[] dataOffsets = new int[machines.size()];
+        for (int m = 0; m < machines.size(); m++) {
+            Machine machine = machines.get(m);
+            byte[] name = machine.getName().getBytes(StandardCharsets.UTF_8);
+            nameOffsets[m] = bodyStart + body.size();
+            body.write(name.length >>> 8);
+            body.write(name.length);
+            body.write(name, 0, name.length);
+
+            dataOffsets[m] = bodyStart + body.size();
+            boolean[][] template = machine.getTemplate();
+            int bits = 0, current = 0;
+            for (int i = 0; i < machine.getHeight(); i++) {
+                for (int j = 0; j < machine.getWidth(); j++) {
+                    if (template[i][j]) {
+                        current |= 1 << (bits & 7);
+                    }
+                    if ((++bits & 7) == 0) {
+                        body.write(current);
+                        current = 0;
+                    }
+                }
+            }
+            if ((bits & 7) != 0) {
+                body.write(current);
+            }
+        }
+
+        ByteArrayOutputStream image = new ByteArrayOutputStream(bodyStart + body.size());
+        try (DataOutputStream out = new DataOutputStream(image)) {
+            out.writeInt(MAGIC);
+            out.writeLong(stamp);
+            out.writeInt(machines.size());
+            for (int m = 0; m < machines.size(); m++) {
+                out.writeInt(nameOffsets[m]);
+                out.writeInt(machines.get(m).getWidth());
+                out.writeInt(machines.get(m).getHeight());
+                out.writeInt(dataOffsets[m]);
+            }
+            body.writeTo(out);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Unable to build machine cache", ex);
+        }
+        return image.toByteArray();
+    }
+
+    /**
+     * Gets the number of machines in the library
+     *
+     * @return the number of machines
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Gets the name of the machine at the specified index without decoding
+     * its template
+     *
+     * @param index the index of the machine
+     * @return the name of the machine
+     */
+    public String getName(int index) {
+        int offset = buffer.getInt(getEntry(index));
+        int length = (buffer.get(offset) & 0xFF) << 8 | buffer.get(offset + 1) & 0xFF;
+        byte[] name = new byte[length];
+        for (int i = 0; i < length; i++) {
+            name[i] = buffer.get(offset + 2 + i);
+        }
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the machine at the specified index, decoding its template the
+     * first time it is requested
+     *
+     * @param index the index of the machine
+     * @return the machine
+     */
+    public Machine getMachine(int index) {
+        int entry = getEntry(index);
+        if (decoded[index] == null) {
+            int width = buffer.getInt(entry + 4), height = buffer.getInt(entry + 8);
+            int offset = buffer.getInt(entry + 12);
+            boolean[][] template = new boolean[height][width];
+            int bit = 0;
+            for (int i = 0; i < height; i++) {
+                for (int j = 0; j < width; j++, bit++) {
+                    template[i][j] = (buffer.get(offset + (bit >>> 3)) & 1 << (bit & 7)) != 0;
+                }
+            }
+            decoded[index] = new Machine(getName(index), width, height, template);
+        }
+        return decoded[index];
+    }
+}
@@ -1,9 +1,9 @@
 package gameoflife;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.AbstractList;
 import javafx.animation.AnimationTimer;
 import javafx.application.Application;
+import javafx.collections.FXCollections;
 import javafx.event.ActionEvent;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -12,8 +12,14 @@ import javafx.scene.canvas.Canvas;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
+import javafx.scene.input.KeyEvent;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.input.ScrollEvent;
 import javafx.scene.layout.GridPane;
@@ -99,6 +105,45 @@ public class Main extends Application {
 
         }.start();
 
+        final Label universeLbl = new Label("Universe:");
+
+        //A ChoiceBox to allow the user to pick the topology of the universe
+        final ChoiceBox<Topology> topologyBox = new ChoiceBox<>();
+        topologyBox.getItems().addAll(Topology.values());
+        topologyBox.setValue(game.getTopology());
+
+        //TextFields to allow the user to specify the size of a bounded universe
+        final TextField universeWidthTxtFld = new TextField(Integer.toString(gridWidth));
+        universeWidthTxtFld.setPrefWidth(60);
+        final Label universeSizeLbl = new Label("x");
+        final TextField universeHeightTxtFld = new TextField(Integer.toString(gridHeight));
+        universeHeightTxtFld.setPrefWidth(60);
+
+        final Label ruleLbl = new Label("Rule:");
+
+        //A TextField to allow the user to specify the rule in B/S/C notation
+        final TextField ruleTxtFld = new TextField(game.getRule().toString());
+        ruleTxtFld.setPrefWidth(90);
+
+        //A CheckBox to allow the user to colour alive cells by their age
+        final CheckBox colourByAgeChkBox = new CheckBox("Colour by age");
+        colourByAgeChkBox.setSelected(game.isColourByAge());
+
+        //A button to confirm the choice of universe, which resets the game
+        final Button universeBtn = new Button("Apply");
+        universeBtn.setOnAction((ActionEvent t) -> {
+            try {
+                game.setUniverse(topologyBox.getValue(),
+                        Integer.parseInt(universeWidthTxtFld.getText()),
+                        Integer.parseInt(universeHeightTxtFld.getText()),
+                        Rule.parse(ruleTxtFld.getText()),
+                        colourByAgeChkBox.isSelected());
+            } catch (IllegalArgumentException ex) {
+                new Alert(Alert.AlertType.WARNING, "Please enter a valid universe: " + ex.getMessage(), ButtonType.OK).showAndWait();
+            }
+            canvas.requestFocus();
+        });
+
         final Label machineLbl = new Label("Machines:");
 
         //The toolbar that will store the buttons
@@ -113,32 +158,71 @@ public class Main extends Application {
         lblToolbar.setAlignment(Pos.CENTER_RIGHT);
         lblToolbar.getChildren().addAll(fpsLbl, genLbl, cellsLbl, timeElapsedLbl);
 
+        //The toolbar that will store the universe settings
+        final HBox universeToolbar = new HBox(5);
+        universeToolbar.setPadding(new Insets(5));
+        universeToolbar.setAlignment(Pos.CENTER_LEFT);
+        universeToolbar.getChildren().addAll(universeLbl, topologyBox, universeWidthTxtFld, universeSizeLbl, universeHeightTxtFld, ruleLbl, ruleTxtFld, colourByAgeChkBox, universeBtn);
+
         //The toolbar that will store the buttons to generate the machines
         final HBox machineToolbar = new HBox(5);
         machineToolbar.setPadding(new Insets(5));
         machineToolbar.setAlignment(Pos.CENTER_LEFT);
         machineToolbar.getChildren().addAll(machineLbl);
 
-        //Create a button for each machine imported from the 'exampleMachines.txt'
-        //file and populate them into the toolbar
-        final List<Button> machineBtns = new ArrayList<>();
-        for (int i = 0; i < game.getNumberOfMachines(); i++) {
-            final int index = i;
-            Button newBtn = new Button(game.getMachineName(index));
-            newBtn.setOnAction((ActionEvent t) -> {
+        //A ComboBox listing the machines imported from the 'exampleMachines.txt'
+        //file. Its items are just the machine indices and names are only
+        //looked up for the rows being shown, so a large library costs nothing
+        //until it is opened
+        final int numberOfMachines = game.getNumberOfMachines();
+        final ComboBox<Integer> machineBox = new ComboBox<>(FXCollections.observableList(new AbstractList<Integer>() {
+
+            @Override
+            public Integer get(int index) {
+                return index;
+            }
+
+            @Override
+            public int size() {
+                return numberOfMachines;
+            }
+
+        }));
+        machineBox.setVisibleRowCount(15);
+        machineBox.setPrefWidth(200);
+        //Stop the popup measuring every row to size itself
+        machineBox.getProperties().put("comboBoxRowsToMeasureWidth", 15);
+        machineBox.setCellFactory((ListView<Integer> list) -> new ListCell<Integer>() {
+
+            @Override
+            protected void updateItem(Integer index, boolean empty) {
+                super.updateItem(index, empty);
+                setText(empty || index == null ? null : game.getMachineName(index));
+            }
+
+        });
+        machineBox.setButtonCell(machineBox.getCellFactory().call(null));
+
+        //A button to draw the selected machine
+        final Button machineBtn = new Button("Draw");
+        machineBtn.setOnAction((ActionEvent t) -> {
+            Integer index = machineBox.getValue();
+            if (index != null) {
                 game.reset();
                 game.drawMachine(index);
-            });
-            machineBtns.add(newBtn);
-        }
-        machineToolbar.getChildren().addAll(machineBtns);
+            }
+            canvas.requestFocus();
+        });
+        machineBox.setOnAction((ActionEvent t) -> machineBtn.fire());
+        machineToolbar.getChildren().addAll(machineBox, machineBtn);
 
         //The root node that will manage all other nodes
         final GridPane root = new GridPane();
         root.add(btnToolbar, 0, 0);
         root.add(lblToolbar, 1, 0);
-        root.add(machineToolbar, 0, 1, 2, 1);
-        root.add(canvas, 0, 2, 2, 1);
+        root.add(universeToolbar, 0, 1, 2, 1);
+        root.add(machineToolbar, 0, 2, 2, 1);
+        root.add(canvas, 0, 3, 2, 1);
 
         //The main scene
         final Scene scene = new Scene(root);
@@ -146,6 +230,28 @@ public class Main extends Application {
             game.changeZoom(t.getDeltaY() < 0);
         });
 
+        //Move the view around the grid with the arrow keys
+        scene.setOnKeyPressed((KeyEvent t) -> {
+            final int panStep = 5;
+            switch (t.getCode()) {
+                case LEFT:
+                    game.pan(-panStep, 0);
+                    break;
+                case RIGHT:
+                    game.pan(panStep, 0);
+                    break;
+                case UP:
+                    game.pan(0, -panStep);
+                    break;
+                case DOWN:
+                    game.pan(0, panStep);
+                    break;
+                default:
+                    return;
+            }
+            t.consume();
+        });
+
         primaryStage.setScene(scene);
         primaryStage.setTitle("Conway's Game of Life");
         primaryStage.show();
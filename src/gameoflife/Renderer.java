@@ -0,0 +1,146 @@
+package gameoflife;
+
+import java.util.Arrays;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.paint.Color;
+
+/**
+ * Draws the visible game grid to a canvas. The state of each visible cell is
+ * mapped through a palette into a pixel buffer in a single pass, which is
+ * then written to the canvas at once, so every colour mode costs the same to
+ * draw.
+ *
+ * @author Ashley Allen
+ */
+public class Renderer {
+
+    private static final int WHITE = toArgb(Color.WHITE);
+    private static final int BLACK = toArgb(Color.BLACK);
+    private static final int LINE = toArgb(Color.SILVER);
+    private static final int OUTSIDE = toArgb(Color.GAINSBORO);
+
+    private final GraphicsContext gc;
+    private final int width, height;
+    private final int[] pixels;
+    private final int[] columnCells, rowCells;
+    private int gridWidth = -1, gridHeight = -1;
+
+    /**
+     * Creates a new renderer that draws to the specified GraphicsContext
+     *
+     * @param gc the GraphicsContext to draw to
+     */
+    public Renderer(GraphicsContext gc) {
+        this.gc = gc;
+        width = (int) gc.getCanvas().getWidth();
+        height = (int) gc.getCanvas().getHeight();
+        pixels = new int[width * height];
+        columnCells = new int[width];
+        rowCells = new int[height];
+    }
+
+    /**
+     * Draws a grid of cell states to the canvas
+     *
+     * @param states the state of each cell in row order
+     * @param gridWidth the width of the grid in cells
+     * @param gridHeight the height of the grid in cells
+     * @param palette the colour to draw each state in
+     */
+    public void render(byte[] states, int gridWidth, int gridHeight, int[] palette) {
+        if (gridWidth != this.gridWidth || gridHeight != this.gridHeight) {
+            this.gridWidth = gridWidth;
+            this.gridHeight = gridHeight;
+            mapPixels(columnCells, gridWidth);
+            mapPixels(rowCells, gridHeight);
+        }
+
+        for (int py = 0; py < height; py++) {
+            int rowCell = rowCells[py], rowStart = py * width;
+            if (rowCell < 0) {
+                Arrays.fill(pixels, rowStart, rowStart + width, LINE);
+                continue;
+            }
+            int stateStart = rowCell * gridWidth;
+            for (int px = 0; px < width; px++) {
+                int columnCell = columnCells[px];
+                pixels[rowStart + px] = columnCell < 0 ? LINE : palette[states[stateStart + columnCell] & 0xFF];
+            }
+        }
+        gc.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+    }
+
+    /**
+     * Works out which cell each pixel along one axis belongs to, marking the
+     * pixels on either side of each cell border as grid lines with -1
+     *
+     * @param pixelCells the array to fill with a cell per pixel
+     * @param cells the number of cells along the axis
+     */
+    private static void mapPixels(int[] pixelCells, int cells) {
+        double factor = (double) pixelCells.length / cells;
+        for (int p = 0; p < pixelCells.length; p++) {
+            int cell = (int) (p / factor);
+            boolean firstPixel = p == 0 || (int) ((p - 1) / factor) != cell;
+            boolean lastPixel = p == pixelCells.length - 1 || (int) ((p + 1) / factor) != cell;
+            pixelCells[p] = firstPixel || lastPixel ? -1 : cell;
+        }
+    }
+
+    /**
+     * Creates a palette that draws alive cells black and dead cells white
+     *
+     * @return the palette
+     */
+    public static int[] monochrome() {
+        int[] palette = new int[256];
+        Arrays.fill(palette, BLACK);
+        palette[0] = WHITE;
+        palette[Universe.OUTSIDE] = OUTSIDE;
+        return palette;
+    }
+
+    /**
+     * Creates a palette for a Generations rule that draws alive cells black
+     * and fades decaying cells towards white
+     *
+     * @param states the number of states in the rule
+     * @return the palette
+     */
+    public static int[] generations(int states) {
+        int[] palette = monochrome();
+        for (int state = 2; state < states; state++) {
+            palette[state] = toArgb(Color.gray((double) (state - 1) / (states - 1)));
+        }
+        return palette;
+    }
+
+    /**
+     * Creates a palette that colours alive cells by their age, from red for
+     * newborn cells through to blue for long lived ones
+     *
+     * @return the palette
+     */
+    public static int[] heat() {
+        int[] palette = monochrome();
+        for (int age = 1; age < Universe.OUTSIDE; age++) {
+            double hue = 240.0 * Math.min(age - 1, 63) / 63;
+            palette[age] = toArgb(Color.hsb(hue, 1, 0.9));
+        }
+        return palette;
+    }
+
+    /**
+     * Converts a colour to a packed ARGB pixel
+     *
+     * @param color the colour to convert
+     * @return the packed pixel
+     */
+    private static int toArgb(Color color) {
+        return 0xFF << 24
+                | (int) Math.round(color.getRed() * 255) << 16
+                | (int) Math.round(color.getGreen() * 255) << 8
+                | (int) Math.round(color.getBlue() * 255);
+    }
+}
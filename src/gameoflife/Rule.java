@@ -0,0 +1,151 @@
+package gameoflife;
+
+/**
+ * Stores a Life-like or Generations rule written in B/S/C notation, for
+ * example "B3/S23" for Conway's Game of Life or "B2/S/C3" for Brian's Brain.
+ * Cells that fail to survive decay through the remaining states before dying
+ *
+ * @author Ashley Allen
+ */
+public class Rule {
+
+    /**
+     * Conway's Game of Life
+     */
+    public static final Rule LIFE = parse("B3/S23");
+
+    /**
+     * The largest number of states a rule may have
+     */
+    public static final int MAX_STATES = 255;
+
+    private final boolean[] birth;
+    private final boolean[] survival;
+    private final int states;
+
+    /**
+     * Constructs a new rule with the specified parameters. Rules where dead
+     * cells with no alive neighbours are born (B0) are not supported as they
+     * would fill the whole unbounded universe
+     *
+     * @param birth whether a dead cell is born for each neighbour count
+     * @param survival whether an alive cell survives for each neighbour count
+     * @param states the number of states including dead and alive
+     */
+    public Rule(boolean[] birth, boolean[] survival, int states) {
+        if (states < 2 || states > MAX_STATES) {
+            throw new IllegalArgumentException("Number of states must be between 2 and " + MAX_STATES + ": " + states);
+        }
+        if (birth[0]) {
+            throw new IllegalArgumentException("Rules with B0 are not supported");
+        }
+        this.birth = birth.clone();
+        this.survival = survival.clone();
+        this.states = states;
+    }
+
+    /**
+     * Parses a rule written in B/S/C notation
+     *
+     * @param notation the rule to parse
+     * @return the parsed rule
+     */
+    public static Rule parse(String notation) {
+        boolean[] birth = new boolean[9], survival = new boolean[9];
+        int states = 2;
+        for (String part : notation.trim().toUpperCase().split("/")) {
+            if (part.isEmpty()) {
+                throw new IllegalArgumentException("Invalid rule: " + notation);
+            }
+            String digits = part.substring(1);
+            switch (part.charAt(0)) {
+                case 'B':
+                    parseCounts(digits, birth, notation);
+                    break;
+                case 'S':
+                    parseCounts(digits, survival, notation);
+                    break;
+                case 'C':
+                case 'G':
+                    states = Integer.parseInt(digits);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Invalid rule: " + notation);
+            }
+        }
+        return new Rule(birth, survival, states);
+    }
+
+    /**
+     * Marks each neighbour count listed in a string of digits
+     *
+     * @param digits the digits to read
+     * @param counts the neighbour counts to mark
+     * @param notation the full rule, used for error messages
+     */
+    private static void parseCounts(String digits, boolean[] counts, String notation) {
+        for (char c : digits.toCharArray()) {
+            if (c < '0' || c > '8') {
+                throw new IllegalArgumentException("Invalid rule: " + notation);
+            }
+            counts[c - '0'] = true;
+        }
+    }
+
+    /**
+     * Checks whether a dead cell with the specified number of alive
+     * neighbours is born
+     *
+     * @param neighbours the number of alive neighbours
+     * @return true if the cell is born
+     */
+    public boolean isBirth(int neighbours) {
+        return birth[neighbours];
+    }
+
+    /**
+     * Checks whether an alive cell with the specified number of alive
+     * neighbours survives
+     *
+     * @param neighbours the number of alive neighbours
+     * @return true if the cell survives
+     */
+    public boolean isSurvival(int neighbours) {
+        return survival[neighbours];
+    }
+
+    /**
+     * Gets the number of states a cell can be in, which is 2 for Life-like
+     * rules
+     *
+     * @return the number of states
+     */
+    public int getStates() {
+        return states;
+    }
+
+    /**
+     * Gets the rule in B/S/C notation
+     *
+     * @return the rule in B/S/C notation
+     */
+    @Override
+    public String toString() {
+        StringBuilder notation = new StringBuilder("B");
+        for (int i = 0; i < 9; i++) {
+            if (birth[i]) {
+                notation.append(i);
+            }
+        }
+        notation.append("/S");
+        for (int i = 0; i < 9; i++) {
+            if (survival[i]) {
+                notation.append(i);
+            }
+        }
+        if (states > 2) {
+            notation.append("/C").append(states);
+        }
+        return notation.toString();
+    }
+}
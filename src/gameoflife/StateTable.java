@@ -0,0 +1,74 @@
+package gameoflife;
+
+/**
+ * Lookup tables for universes that store one state byte per cell: which
+ * states count as alive and what every state becomes for each number of
+ * alive neighbours.
+ *
+ * The state of a cell is 0 when dead and 1 when alive. Under a Generations
+ * rule cells that fail to survive decay through states 2 and upwards before
+ * dying. When tracking age under a two state rule the state of an alive cell
+ * instead counts the generations it has been alive for.
+ *
+ * @author Ashley Allen
+ */
+public class StateTable {
+
+    private static final int MAX_AGE = Universe.OUTSIDE - 1;
+
+    private final byte[] aliveStates = new byte[256];
+    private final byte[] transitions = new byte[256 * 9];
+
+    /**
+     * Builds the tables for the specified rule
+     *
+     * @param rule the rule to play
+     * @param trackAge whether alive cells should count their age, which only
+     * applies to two state rules
+     */
+    public StateTable(Rule rule, boolean trackAge) {
+        int states = rule.getStates();
+        trackAge = trackAge && states == 2;
+
+        for (int state = 1; state < Universe.OUTSIDE; state++) {
+            aliveStates[state] = (byte) (state == 1 || trackAge ? 1 : 0);
+        }
+        for (int state = 0; state < Universe.OUTSIDE; state++) {
+            for (int neighbours = 0; neighbours < 9; neighbours++) {
+                int next;
+                if (state == 0) {
+                    next = rule.isBirth(neighbours) ? 1 : 0;
+                } else if (aliveStates[state] != 0) {
+                    if (rule.isSurvival(neighbours)) {
+                        next = trackAge ? Math.min(state + 1, MAX_AGE) : 1;
+                    } else {
+                        next = states > 2 ? 2 : 0;
+                    }
+                } else {
+                    next = state + 1 < states ? state + 1 : 0;
+                }
+                transitions[state * 9 + neighbours] = (byte) next;
+            }
+        }
+    }
+
+    /**
+     * Gets a table holding 1 for each state that counts as alive and 0
+     * otherwise
+     *
+     * @return the alive table, indexed by state
+     */
+    public byte[] getAliveStates() {
+        return aliveStates;
+    }
+
+    /**
+     * Gets a table of the next state of a cell, indexed by its current state
+     * times 9 plus its number of alive neighbours
+     *
+     * @return the transition table
+     */
+    public byte[] getTransitions() {
+        return transitions;
+    }
+}
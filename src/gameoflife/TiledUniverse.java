@@ -0,0 +1,200 @@
+package gameoflife;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An unbounded universe stored as square tiles of cells, each tile being a
+ * packed array holding one state byte per cell. Only tiles containing a
+ * non-dead cell are kept. Each generation a tile is copied with a one cell
+ * border taken from its neighbours so that its cells can be updated without
+ * any bounds checks. States follow the rules described in StateTable.
+ *
+ * @author Ashley Allen
+ */
+public class TiledUniverse implements Universe {
+
+    private static final int TILE_SHIFT = 5;
+    private static final int TILE_SIZE = 1 << TILE_SHIFT;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+    private static final int PADDED_SIZE = TILE_SIZE + 2;
+
+    private final byte[] aliveStates;
+    private final byte[] transitions;
+    private final byte[] padded = new byte[PADDED_SIZE * PADDED_SIZE];
+    private final Deque<byte[]> spareTiles = new ArrayDeque<>();
+    private Map<Long, byte[]> tiles = new HashMap<>();
+    private int population = 0;
+
+    /**
+     * Creates a new empty universe that plays the specified rule
+     *
+     * @param rule the rule to play
+     * @param trackAge whether alive cells should count their age, which only
+     * applies to two state rules
+     */
+    public TiledUniverse(Rule rule, boolean trackAge) {
+        StateTable table = new StateTable(rule, trackAge);
+        aliveStates = table.getAliveStates();
+        transitions = table.getTransitions();
+    }
+
+    /**
+     * Constructs the key of the tile at the specified tile coordinates
+     *
+     * @param tileX the x coordinate of the tile
+     * @param tileY the y coordinate of the tile
+     * @return the key of the tile
+     */
+    private static long getTileKey(int tileX, int tileY) {
+        return (long) tileX << 32 | tileY & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public void step() {
+        //Every tile holding a non-dead cell and its neighbours may change
+        Set<Long> updates = new HashSet<>();
+        for (long key : tiles.keySet()) {
+            int tileX = (int) (key >> 32), tileY = (int) key;
+            for (int dy = -1; dy < 2; dy++) {
+                for (int dx = -1; dx < 2; dx++) {
+                    updates.add(getTileKey(tileX + dx, tileY + dy));
+                }
+            }
+        }
+
+        Map<Long, byte[]> nextTiles = new HashMap<>();
+        int count = 0;
+        for (long key : updates) {
+            int tileX = (int) (key >> 32), tileY = (int) key;
+            fillPadded(tileX, tileY);
+
+            byte[] tile = tiles.get(key);
+            byte[] next = spareTiles.isEmpty() ? new byte[TILE_SIZE * TILE_SIZE] : spareTiles.pop();
+            boolean empty = true;
+            for (int y = 0; y < TILE_SIZE; y++) {
+                int above = y * PADDED_SIZE + 1, middle = above + PADDED_SIZE, below = middle + PADDED_SIZE;
+                for (int x = 0; x < TILE_SIZE; x++) {
+                    int neighbours = padded[above + x - 1] + padded[above + x] + padded[above + x + 1]
+                            + padded[middle + x - 1] + padded[middle + x + 1]
+                            + padded[below + x - 1] + padded[below + x] + padded[below + x + 1];
+                    int state = tile == null ? 0 : tile[y * TILE_SIZE + x] & 0xFF;
+                    byte nextState = transitions[state * 9 + neighbours];
+                    next[y * TILE_SIZE + x] = nextState;
+                    if (nextState != 0) {
+                        empty = false;
+                        count += aliveStates[nextState & 0xFF];
+                    }
+                }
+            }
+
+            if (empty) {
+                spareTiles.push(next);
+            } else {
+                nextTiles.put(key, next);
+            }
+        }
+
+        //Keep no more spare tiles than are in use so memory from a burst
+        //that has since died out can be reclaimed
+        for (byte[] tile : tiles.values()) {
+            if (spareTiles.size() >= nextTiles.size()) {
+                break;
+            }
+            spareTiles.push(tile);
+        }
+        while (spareTiles.size() > nextTiles.size()) {
+            spareTiles.pop();
+        }
+        tiles = nextTiles;
+        population = count;
+    }
+
+    /**
+     * Fills the padded array with which cells of a tile and the border around
+     * it are alive
+     *
+     * @param tileX the x coordinate of the tile
+     * @param tileY the y coordinate of the tile
+     */
+    private void fillPadded(int tileX, int tileY) {
+        for (int dy = -1; dy < 2; dy++) {
+            for (int dx = -1; dx < 2; dx++) {
+                byte[] source = tiles.get(getTileKey(tileX + dx, tileY + dy));
+                int sourceX = dx < 0 ? TILE_MASK : 0, sourceY = dy < 0 ? TILE_MASK : 0;
+                int width = dx == 0 ? TILE_SIZE : 1, height = dy == 0 ? TILE_SIZE : 1;
+                int destX = dx + 1 + (dx > 0 ? TILE_MASK : 0), destY = dy + 1 + (dy > 0 ? TILE_MASK : 0);
+                for (int y = 0; y < height; y++) {
+                    int destRow = (destY + y) * PADDED_SIZE + destX;
+                    if (source == null) {
+                        Arrays.fill(padded, destRow, destRow + width, (byte) 0);
+                    } else {
+                        int sourceRow = (sourceY + y) * TILE_SIZE + sourceX;
+                        for (int x = 0; x < width; x++) {
+                            padded[destRow + x] = aliveStates[source[sourceRow + x] & 0xFF];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public int getPopulation() {
+        return population;
+    }
+
+    @Override
+    public int getState(int x, int y) {
+        byte[] tile = tiles.get(getTileKey(x >> TILE_SHIFT, y >> TILE_SHIFT));
+        return tile == null ? 0 : tile[(y & TILE_MASK) * TILE_SIZE + (x & TILE_MASK)] & 0xFF;
+    }
+
+    @Override
+    public void setCell(int x, int y, boolean alive) {
+        long key = getTileKey(x >> TILE_SHIFT, y >> TILE_SHIFT);
+        byte[] tile = tiles.get(key);
+        if (tile == null) {
+            if (!alive) {
+                return;
+            }
+            tile = spareTiles.isEmpty() ? new byte[TILE_SIZE * TILE_SIZE] : spareTiles.pop();
+            Arrays.fill(tile, (byte) 0);
+            tiles.put(key, tile);
+        }
+        int index = (y & TILE_MASK) * TILE_SIZE + (x & TILE_MASK);
+        population += (alive ? 1 : 0) - aliveStates[tile[index] & 0xFF];
+        tile[index] = (byte) (alive ? 1 : 0);
+    }
+
+    @Override
+    public void copyStates(int startX, int startY, int width, int height, byte[] states) {
+        for (int y = 0; y < height; y++) {
+            int cy = startY + y;
+            for (int x = 0; x < width;) {
+                //Copy the run of cells that lies within one tile at once
+                int cx = startX + x;
+                int run = Math.min(width - x, TILE_SIZE - (cx & TILE_MASK));
+                byte[] tile = tiles.get(getTileKey(cx >> TILE_SHIFT, cy >> TILE_SHIFT));
+                if (tile == null) {
+                    Arrays.fill(states, y * width + x, y * width + x + run, (byte) 0);
+                } else {
+                    System.arraycopy(tile, (cy & TILE_MASK) * TILE_SIZE + (cx & TILE_MASK), states, y * width + x, run);
+                }
+                x += run;
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        spareTiles.clear();
+        tiles.clear();
+        population = 0;
+    }
+}
@@ -0,0 +1,74 @@
+package gameoflife;
+
+/**
+ * The shapes of universe the game can be played in
+ *
+ * @author Ashley Allen
+ */
+public enum Topology {
+
+    /**
+     * An infinite plane
+     */
+    UNBOUNDED("Unbounded"),
+    /**
+     * A finite plane surrounded by permanently dead cells
+     */
+    PLANE("Plane"),
+    /**
+     * A finite plane whose opposite edges are joined
+     */
+    TORUS("Torus"),
+    /**
+     * A finite plane whose left and right edges are joined and whose top and
+     * bottom edges are joined with a half twist
+     */
+    KLEIN_BOTTLE("Klein bottle");
+
+    private final String name;
+
+    /**
+     * Creates a new topology with the specified display name
+     *
+     * @param name the name to display for the topology
+     */
+    private Topology(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Maps a coordinate onto a bounded universe of this topology, wrapping
+     * it around the joined edges
+     *
+     * @param x the x coordinate to map
+     * @param y the y coordinate to map
+     * @param width the width of the universe
+     * @param height the height of the universe
+     * @return the index y * width + x of the cell it maps to, or -1 if it
+     * lies off the edge of a plane
+     */
+    public int wrap(int x, int y, int width, int height) {
+        if (this == PLANE || this == UNBOUNDED) {
+            if (x < 0 || y < 0 || x >= width || y >= height) {
+                return -1;
+            }
+        } else {
+            if (this == KLEIN_BOTTLE && (Math.floorDiv(y, height) & 1) != 0) {
+                x = width - 1 - x;
+            }
+            x = Math.floorMod(x, width);
+            y = Math.floorMod(y, height);
+        }
+        return y * width + x;
+    }
+
+    /**
+     * Gets the display name of the topology
+     *
+     * @return the display name of the topology
+     */
+    @Override
+    public String toString() {
+        return name;
+    }
+}
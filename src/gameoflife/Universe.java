@@ -0,0 +1,63 @@
+package gameoflife;
+
+/**
+ * A universe of cells that can be advanced one generation at a time. Each
+ * cell holds a small state: 0 is dead, anything else is alive or decaying
+ * depending on the rule being played
+ *
+ * @author Ashley Allen
+ */
+public interface Universe {
+
+    /**
+     * The state reported for squares that lie outside the universe
+     */
+    int OUTSIDE = 255;
+
+    /**
+     * Advances the universe by one generation
+     */
+    void step();
+
+    /**
+     * Gets the number of currently alive cells
+     *
+     * @return the number of currently alive cells
+     */
+    int getPopulation();
+
+    /**
+     * Gets the state of the cell at the specified coordinates
+     *
+     * @param x the x coordinate of the cell
+     * @param y the y coordinate of the cell
+     * @return the state of the cell, or OUTSIDE if it is not in the universe
+     */
+    int getState(int x, int y);
+
+    /**
+     * Sets whether the cell at the specified coordinates is alive
+     *
+     * @param x the x coordinate of the cell
+     * @param y the y coordinate of the cell
+     * @param alive whether the cell should be alive
+     */
+    void setCell(int x, int y, boolean alive);
+
+    /**
+     * Copies the states of a rectangle of cells into an array, one byte per
+     * cell in row order
+     *
+     * @param startX the x coordinate of the top left cell
+     * @param startY the y coordinate of the top left cell
+     * @param width the width of the rectangle
+     * @param height the height of the rectangle
+     * @param states the array to copy the states into
+     */
+    void copyStates(int startX, int startY, int width, int height, byte[] states);
+
+    /**
+     * Kills every cell in the universe
+     */
+    void clear();
+}